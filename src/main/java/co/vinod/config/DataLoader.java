@@ -2,6 +2,7 @@ package co.vinod.config;
 
 import co.vinod.entity.Contact;
 import co.vinod.repository.ContactRepository;
+import co.vinod.service.ContactService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,10 +13,12 @@ import java.util.UUID;
 public class DataLoader implements CommandLineRunner {
 
     private final ContactRepository contactRepository;
+    private final ContactService contactService;
 
     @Autowired
-    public DataLoader(ContactRepository contactRepository) {
+    public DataLoader(ContactRepository contactRepository, ContactService contactService) {
         this.contactRepository = contactRepository;
+        this.contactService = contactService;
     }
 
     @Override
@@ -26,6 +29,7 @@ public class DataLoader implements CommandLineRunner {
         }
     }
 
+    // Goes through ContactService so the samples are also in the duplicate index
     private void loadSampleData() {
         // Sample Contact 1
         Contact contact1 = new Contact();
@@ -41,7 +45,7 @@ public class DataLoader implements CommandLineRunner {
         contact1.setCountry("USA");
         contact1.setPincode("10001");
         contact1.setPicture("https://randomuser.me/api/portraits/men/1.jpg");
-        contactRepository.save(contact1);
+        contactService.createContact(contact1);
 
         // Sample Contact 2
         Contact contact2 = new Contact();
@@ -57,7 +61,7 @@ public class DataLoader implements CommandLineRunner {
         contact2.setCountry("USA");
         contact2.setPincode("94107");
         contact2.setPicture("https://randomuser.me/api/portraits/women/2.jpg");
-        contactRepository.save(contact2);
+        contactService.createContact(contact2);
 
         // Sample Contact 3
         Contact contact3 = new Contact();
@@ -73,6 +77,6 @@ public class DataLoader implements CommandLineRunner {
         contact3.setCountry("USA");
         contact3.setPincode("60601");
         contact3.setPicture("https://randomuser.me/api/portraits/men/3.jpg");
-        contactRepository.save(contact3);
+        contactService.createContact(contact3);
     }
 } 
\ No newline at end of file
@@ -2,8 +2,10 @@ package co.vinod.controller;
 
 import co.vinod.entity.Contact;
 import co.vinod.entity.ContactList;
+import co.vinod.entity.DuplicateReport;
 import co.vinod.entity.ErrorInfo;
 import co.vinod.service.ContactService;
+import co.vinod.service.DuplicateDetectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -24,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -33,11 +36,15 @@ import java.util.stream.Collectors;
 @Tag(name = "Contacts", description = "Contact management API with support for JSON, XML, CSV, and text formats")
 public class ContactController {
 
+    private static final String DUPLICATE_OF_HEADER = "X-Duplicate-Of";
+
     private final ContactService contactService;
+    private final DuplicateDetectionService duplicateDetectionService;
 
     @Autowired
-    public ContactController(ContactService contactService) {
+    public ContactController(ContactService contactService, DuplicateDetectionService duplicateDetectionService) {
         this.contactService = contactService;
+        this.duplicateDetectionService = duplicateDetectionService;
     }
 
     // Get all contacts with various format supports and pagination
@@ -157,14 +164,17 @@ public class ContactController {
     // Create a new contact
     @Operation(
             summary = "Create a new contact",
-            description = "Creates a new contact record"
+            description = "Creates a new contact record. Depending on contacts.dedupe.create-check, a likely duplicate "
+                    + "is either flagged with the X-Duplicate-Of header or rejected"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Contact successfully created",
                     content = {
                             @Content(mediaType = "application/json", schema = @Schema(implementation = Contact.class)),
                             @Content(mediaType = "application/xml")
-                    })
+                    }),
+            @ApiResponse(responseCode = "409", description = "Contact is a likely duplicate of an existing contact",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorInfo.class)))
     })
     @PostMapping(
             consumes = {
@@ -183,16 +193,31 @@ public class ContactController {
             @Parameter(description = "Response format (json, xml)") 
             @RequestParam(value = "format", required = false) String format
     ) {
+        // Optional duplicate check against the in-memory blocking index
+        Optional<DuplicateDetectionService.Match> duplicate = Optional.empty();
+        if (duplicateDetectionService.getCreateCheck() != DuplicateDetectionService.CreateCheck.OFF) {
+            duplicate = duplicateDetectionService.findLikelyDuplicate(contact);
+            if (duplicate.isPresent()
+                    && duplicateDetectionService.getCreateCheck() == DuplicateDetectionService.CreateCheck.REJECT) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ErrorInfo("Contact looks like a duplicate of contact with ID "
+                                + duplicate.get().contactId()));
+            }
+        }
+
         Contact savedContact = contactService.createContact(contact);
         
         String contentType = determineContentType(acceptHeader, format);
         
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        duplicate.ifPresent(match -> response.header(DUPLICATE_OF_HEADER, match.contactId()));
+        
         if (MediaType.APPLICATION_XML_VALUE.equals(contentType)) {
-            return ResponseEntity.status(HttpStatus.CREATED)
+            return response
                     .contentType(MediaType.APPLICATION_XML)
                     .body(savedContact);
         } else {
-            return ResponseEntity.status(HttpStatus.CREATED)
+            return response
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(savedContact);
         }
@@ -277,6 +302,124 @@ public class ContactController {
         }
     }
 
+    // Get the duplicate-contact report from the latest background scan
+    @Operation(
+            summary = "Get duplicate contacts",
+            description = "Retrieves groups of likely duplicate contacts found by the latest background scan, "
+                    + "ordered by similarity score"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the duplicate report",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = DuplicateReport.class)),
+                            @Content(mediaType = "application/xml")
+                    })
+    })
+    @GetMapping(
+            value = "/duplicates",
+            produces = {
+                    MediaType.APPLICATION_JSON_VALUE,
+                    MediaType.APPLICATION_XML_VALUE
+            }
+    )
+    public ResponseEntity<?> getDuplicates(
+            @RequestHeader(value = "Accept", required = false) String acceptHeader,
+            @Parameter(description = "Response format (json, xml)") 
+            @RequestParam(value = "format", required = false) String format,
+            @Parameter(description = "Page number (1-based)") 
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @Parameter(description = "Number of groups per page (at most 100)") 
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        DuplicateReport report = duplicateDetectionService.getReport(page, limit);
+        
+        String contentType = determineContentType(acceptHeader, format);
+        
+        if (MediaType.APPLICATION_XML_VALUE.equals(contentType)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_XML)
+                    .body(report);
+        } else {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(report);
+        }
+    }
+
+    // Trigger a duplicate scan on demand
+    @Operation(
+            summary = "Start a duplicate scan",
+            description = "Starts a background scan that rebuilds the duplicate index and report"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Scan started"),
+            @ApiResponse(responseCode = "409", description = "A scan is already running",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PostMapping("/duplicates/scan")
+    public ResponseEntity<?> startDuplicateScan() {
+        if (duplicateDetectionService.startScan()) {
+            return ResponseEntity.accepted().build();
+        } else {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorInfo("A duplicate scan is already running"));
+        }
+    }
+
+    // Merge duplicates into a contact
+    @Operation(
+            summary = "Merge duplicate contacts",
+            description = "Merges the given duplicates into the contact: blank fields are filled from the duplicates, "
+                    + "which are then deleted"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contacts successfully merged",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = Contact.class)),
+                            @Content(mediaType = "application/xml")
+                    }),
+            @ApiResponse(responseCode = "404", description = "Contact or one of the duplicates not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PostMapping(
+            value = "/{id}/merge",
+            produces = {
+                    MediaType.APPLICATION_JSON_VALUE,
+                    MediaType.APPLICATION_XML_VALUE
+            }
+    )
+    public ResponseEntity<?> mergeContacts(
+            @Parameter(description = "ID of the contact to keep", required = true) 
+            @PathVariable String id,
+            @Parameter(description = "IDs of the duplicates to merge and delete", required = true) 
+            @RequestParam("duplicateIds") List<String> duplicateIds,
+            @RequestHeader(value = "Accept", required = false) String acceptHeader,
+            @Parameter(description = "Response format (json, xml)") 
+            @RequestParam(value = "format", required = false) String format
+    ) {
+        Optional<Contact> mergedContact = contactService.mergeContacts(id, duplicateIds);
+        
+        if (mergedContact.isPresent()) {
+            String contentType = determineContentType(acceptHeader, format);
+            
+            if (MediaType.APPLICATION_XML_VALUE.equals(contentType)) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_XML)
+                        .body(mergedContact.get());
+            } else {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(mergedContact.get());
+            }
+        } else {
+            List<String> requestedIds = new ArrayList<>(duplicateIds);
+            requestedIds.add(0, id);
+            List<String> missingIds = contactService.findMissingContactIds(requestedIds);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorInfo("Contacts with IDs " + String.join(", ", missingIds) + " not found"));
+        }
+    }
+
     // Helper methods
     private String determineContentType(String acceptHeader, String format) {
         // First check the format parameter
@@ -0,0 +1,29 @@
+package co.vinod.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+public class DuplicateGroup {
+    private double score;
+    @XmlElement(name = "matchedOn")
+    private List<String> matchedOn = new ArrayList<>();
+    @XmlElement(name = "contact")
+    private List<Contact> contacts = new ArrayList<>();
+
+    public DuplicateGroup(double score, List<String> matchedOn, List<Contact> contacts) {
+        this.score = score;
+        this.matchedOn.addAll(matchedOn);
+        this.contacts.addAll(contacts);
+    }
+}
@@ -0,0 +1,28 @@
+package co.vinod.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+public class DuplicateReport {
+    private Date generatedAt;
+    private boolean scanInProgress;
+    private long scannedContacts;
+    private int skippedBlocks;
+    private int totalGroups;
+    private int page;
+    private int limit;
+    @XmlElement(name = "group")
+    private List<DuplicateGroup> groups = new ArrayList<>();
+}
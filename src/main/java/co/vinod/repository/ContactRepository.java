@@ -1,10 +1,15 @@
 package co.vinod.repository;
 
 import co.vinod.entity.Contact;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, String> {
     // Basic CRUD operations are provided by JpaRepository
-} 
\ No newline at end of file
+
+    // Keyset paging by id, so full-table scans don't degrade with OFFSET on large tables
+    Slice<Contact> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+}
@@ -0,0 +1,136 @@
+package co.vinod.service;
+
+import co.vinod.service.ContactSimilarity.BlockKey;
+import co.vinod.service.ContactSimilarity.Fingerprint;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Blocking key to contact ids, plus the fingerprint of every indexed contact.
+ * Blocks are small immutable arrays swapped atomically, which keeps memory low for millions of keys.
+ * A block that would grow past the size limit is dropped and its key marked oversized. The mark is
+ * never cleared by removals, since the ids turned away are no longer known; only a rebuild into a
+ * fresh index starts the key over.
+ * <p>
+ * While an index is being rebuilt, writers go through {@link #putWritten} and {@link #removeWritten}.
+ * Those ids are remembered and {@link #putScanned} skips them, so rows the scan read before a concurrent
+ * update or delete never overwrite the newer state.
+ */
+final class BlockingIndex {
+
+    private final int maxBlockSize;
+
+    private final ConcurrentHashMap<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BlockKey, String[]> blocks = new ConcurrentHashMap<>();
+    private final Set<BlockKey> oversized = ConcurrentHashMap.newKeySet();
+    // Ids written or removed during a rebuild; also the lock that orders those writes against the scan
+    private final Set<String> written = new HashSet<>();
+
+    BlockingIndex(int maxBlockSize) {
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    Fingerprint get(String id) {
+        return fingerprints.get(id);
+    }
+
+    // Null for unknown and oversized keys
+    String[] block(BlockKey key) {
+        return blocks.get(key);
+    }
+
+    boolean isOversized(BlockKey key) {
+        return oversized.contains(key);
+    }
+
+    int oversizedCount() {
+        return oversized.size();
+    }
+
+    int size() {
+        return fingerprints.size();
+    }
+
+    void forEachBlock(BiConsumer<BlockKey, String[]> action) {
+        blocks.forEach(action);
+    }
+
+    void put(Fingerprint fingerprint) {
+        Fingerprint previous = fingerprints.put(fingerprint.id(), fingerprint);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (BlockKey key : fingerprint.blockingKeys()) {
+            blocks.compute(key, (k, ids) -> {
+                if (oversized.contains(k)) {
+                    return null;
+                }
+                if (ids == null) {
+                    return new String[]{fingerprint.id()};
+                }
+                if (Arrays.asList(ids).contains(fingerprint.id())) {
+                    return ids;
+                }
+                if (ids.length >= maxBlockSize) {
+                    oversized.add(k);
+                    return null;
+                }
+                String[] grown = Arrays.copyOf(ids, ids.length + 1);
+                grown[ids.length] = fingerprint.id();
+                return grown;
+            });
+        }
+    }
+
+    void putWritten(Fingerprint fingerprint) {
+        synchronized (written) {
+            written.add(fingerprint.id());
+            put(fingerprint);
+        }
+    }
+
+    void removeWritten(String id) {
+        synchronized (written) {
+            written.add(id);
+            remove(id);
+        }
+    }
+
+    // Inserts a row read by the scan, unless a writer has touched that contact since the rebuild started
+    void putScanned(Fingerprint fingerprint) {
+        synchronized (written) {
+            if (!written.contains(fingerprint.id())) {
+                put(fingerprint);
+            }
+        }
+    }
+
+    // Called once the rebuild is over and writers no longer mark ids
+    void finishRebuild() {
+        synchronized (written) {
+            written.clear();
+        }
+    }
+
+    void remove(String id) {
+        Fingerprint previous = fingerprints.remove(id);
+        if (previous != null) {
+            unlink(previous);
+        }
+    }
+
+    private void unlink(Fingerprint fingerprint) {
+        for (BlockKey key : fingerprint.blockingKeys()) {
+            blocks.computeIfPresent(key, (k, ids) -> {
+                String[] remaining = Arrays.stream(ids)
+                        .filter(id -> !id.equals(fingerprint.id()))
+                        .toArray(String[]::new);
+                return remaining.length == 0 ? null : remaining;
+            });
+        }
+    }
+}
@@ -6,19 +6,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ContactService {
 
     private final ContactRepository repository;
+    private final DuplicateDetectionService duplicateDetectionService;
 
     @Autowired
-    public ContactService(ContactRepository repository) {
+    public ContactService(ContactRepository repository, DuplicateDetectionService duplicateDetectionService) {
         this.repository = repository;
+        this.duplicateDetectionService = duplicateDetectionService;
     }
 
     public List<Contact> getAllContacts() {
@@ -37,13 +44,17 @@ public class ContactService {
         if (contact.getId() == null || contact.getId().isEmpty()) {
             contact.setId(UUID.randomUUID().toString());
         }
-        return repository.save(contact);
+        Contact savedContact = repository.save(contact);
+        duplicateDetectionService.index(savedContact);
+        return savedContact;
     }
 
     public Optional<Contact> updateContact(String id, Contact contact) {
         if (repository.existsById(id)) {
             contact.setId(id);
-            return Optional.of(repository.save(contact));
+            Contact savedContact = repository.save(contact);
+            duplicateDetectionService.index(savedContact);
+            return Optional.of(savedContact);
         }
         return Optional.empty();
     }
@@ -51,8 +62,59 @@ public class ContactService {
     public boolean deleteContact(String id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            duplicateDetectionService.remove(id);
             return true;
         }
         return false;
     }
-} 
\ No newline at end of file
+
+    // Merges duplicates into the surviving contact: blank fields are filled from the duplicates, which are then deleted.
+    // Nothing is merged unless the survivor and every duplicate exist.
+    @Transactional
+    public Optional<Contact> mergeContacts(String id, List<String> duplicateIds) {
+        Optional<Contact> survivor = repository.findById(id);
+        List<String> ids = duplicateIds.stream().filter(duplicateId -> !duplicateId.equals(id)).distinct().toList();
+        List<Contact> duplicates = repository.findAllById(ids);
+        if (survivor.isEmpty() || duplicates.size() != ids.size()) {
+            return Optional.empty();
+        }
+
+        Contact target = survivor.get();
+        for (Contact duplicate : duplicates) {
+            target.setFirstname(firstNonBlank(target.getFirstname(), duplicate.getFirstname()));
+            target.setLastname(firstNonBlank(target.getLastname(), duplicate.getLastname()));
+            target.setGender(firstNonBlank(target.getGender(), duplicate.getGender()));
+            target.setEmail(firstNonBlank(target.getEmail(), duplicate.getEmail()));
+            target.setPhone(firstNonBlank(target.getPhone(), duplicate.getPhone()));
+            target.setAddress(firstNonBlank(target.getAddress(), duplicate.getAddress()));
+            target.setCity(firstNonBlank(target.getCity(), duplicate.getCity()));
+            target.setState(firstNonBlank(target.getState(), duplicate.getState()));
+            target.setCountry(firstNonBlank(target.getCountry(), duplicate.getCountry()));
+            target.setPincode(firstNonBlank(target.getPincode(), duplicate.getPincode()));
+            target.setPicture(firstNonBlank(target.getPicture(), duplicate.getPicture()));
+            repository.delete(duplicate);
+        }
+        Contact savedContact = repository.save(target);
+
+        // Only touch the in-memory index once the merge is committed, so a rollback leaves it matching the database
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(duplicateDetectionService::remove);
+                duplicateDetectionService.index(savedContact);
+            }
+        });
+        return Optional.of(savedContact);
+    }
+
+    public List<String> findMissingContactIds(List<String> ids) {
+        Set<String> found = repository.findAllById(ids).stream()
+                .map(Contact::getId)
+                .collect(Collectors.toSet());
+        return ids.stream().filter(id -> !found.contains(id)).distinct().toList();
+    }
+
+    private static String firstNonBlank(String current, String fallback) {
+        return current == null || current.isBlank() ? fallback : current;
+    }
+}
@@ -0,0 +1,266 @@
+package co.vinod.service;
+
+import co.vinod.entity.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalization, blocking keys and similarity scoring used for duplicate detection.
+ */
+public final class ContactSimilarity {
+
+    public static final String EMAIL = "email";
+    public static final String PHONE = "phone";
+    public static final String NAME_PINCODE = "name+pincode";
+
+    private static final double FIRST_NAME_AGREEMENT = 0.88;
+
+    private ContactSimilarity() {
+    }
+
+    public enum BlockKind { EMAIL, PHONE, NAME_PINCODE }
+
+    // Blocking key; email and phone keys reuse the fingerprint's normalized strings instead of copying them
+    public record BlockKey(BlockKind kind, String value) {
+    }
+
+    // Compact, normalized view of a contact; this is what the blocking index keeps in memory
+    public record Fingerprint(String id, String email, String phone, String name, String pincode) {
+
+        public List<BlockKey> blockingKeys() {
+            List<BlockKey> keys = new ArrayList<>(3);
+            if (email != null) {
+                keys.add(new BlockKey(BlockKind.EMAIL, email));
+            }
+            if (phone != null) {
+                keys.add(new BlockKey(BlockKind.PHONE, phone));
+            }
+            String nameKey = nameBlock(name, pincode);
+            if (nameKey != null) {
+                keys.add(new BlockKey(BlockKind.NAME_PINCODE, nameKey));
+            }
+            return keys;
+        }
+    }
+
+    public static Fingerprint fingerprint(Contact contact) {
+        return new Fingerprint(
+                contact.getId(),
+                normalizeEmail(contact.getEmail()),
+                normalizePhone(contact.getPhone()),
+                normalizeName(contact.getFirstname(), contact.getLastname()),
+                normalizePincode(contact.getPincode())
+        );
+    }
+
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String value = email.trim().toLowerCase(Locale.ROOT);
+        int at = value.indexOf('@');
+        if (at <= 0 || at == value.length() - 1) {
+            return null;
+        }
+        // Drop "+tag" sub-addressing so john+news@x.com matches john@x.com
+        String local = value.substring(0, at);
+        int plus = local.indexOf('+');
+        if (plus > 0) {
+            local = local.substring(0, plus);
+        }
+        return local + value.substring(at);
+    }
+
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < 7) {
+            return null;
+        }
+        // Compare on the subscriber number so "+1 555..." matches "555..."
+        return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits.toString();
+    }
+
+    public static String normalizeName(String firstname, String lastname) {
+        String first = lettersOnly(firstname);
+        String last = lettersOnly(lastname);
+        if (first.isEmpty() && last.isEmpty()) {
+            return null;
+        }
+        return first + " " + last;
+    }
+
+    public static String normalizePincode(String pincode) {
+        if (pincode == null) {
+            return null;
+        }
+        String value = pincode.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+        return value.isEmpty() ? null : value;
+    }
+
+    // First initial + last name + pincode, so "Jon Doe" and "John Doe" in the same area share a block
+    static String nameBlock(String name, String pincode) {
+        if (name == null || pincode == null) {
+            return null;
+        }
+        int space = name.indexOf(' ');
+        String first = name.substring(0, space);
+        String last = name.substring(space + 1);
+        if (first.isEmpty() || last.isEmpty()) {
+            return null;
+        }
+        return first.charAt(0) + last + "|" + pincode;
+    }
+
+    /**
+     * Scores how likely two fingerprints describe the same person, from 0 to 1.
+     * A shared email or phone counts for half, the other half comes from name similarity, but only when
+     * the first names agree; household members sharing a phone or mailbox stay below the threshold.
+     * A phone is the channel households share most, so a phone-only match needs identical first names
+     * (or an initial), not just similar ones such as "Mary" and "Mark".
+     * Without a shared contact channel only a near-identical name in the same pincode scores high.
+     * Conflicting emails or phones count against the match, and veto it when nothing is shared.
+     */
+    public static double score(Fingerprint a, Fingerprint b) {
+        double nameSimilarity = a.name() != null && b.name() != null ? jaroWinkler(a.name(), b.name()) : 0.0;
+        boolean sameEmail = a.email() != null && a.email().equals(b.email());
+        boolean samePhone = a.phone() != null && a.phone().equals(b.phone());
+        int conflicts = (conflicting(a.email(), b.email()) ? 1 : 0) + (conflicting(a.phone(), b.phone()) ? 1 : 0);
+        boolean firstNamesAgree = firstNamesAgree(a.name(), b.name(), true);
+
+        if (sameEmail || samePhone) {
+            boolean agree = sameEmail ? firstNamesAgree : firstNamesAgree(a.name(), b.name(), false);
+            if (!agree) {
+                return 0.5 * nameSimilarity;
+            }
+            double score = 0.5 + 0.5 * nameSimilarity;
+            if (sameEmail && samePhone) {
+                score += 0.1;
+            }
+            // Same person with a changed phone or email still passes, a second conflict does not
+            return Math.max(0.0, Math.min(1.0, score - 0.1 * conflicts));
+        }
+
+        boolean samePincode = a.pincode() != null && a.pincode().equals(b.pincode());
+        double score = nameSimilarity * (samePincode ? 0.9 : 0.5);
+        if (!firstNamesAgree) {
+            score *= 0.5;
+        }
+        // Two people with the same name in one area are told apart by their distinct contact details
+        return conflicts > 0 ? score * Math.pow(0.5, conflicts) : score;
+    }
+
+    public static List<String> matchedOn(Fingerprint a, Fingerprint b) {
+        List<String> reasons = new ArrayList<>(3);
+        if (a.email() != null && a.email().equals(b.email())) {
+            reasons.add(EMAIL);
+        }
+        if (a.phone() != null && a.phone().equals(b.phone())) {
+            reasons.add(PHONE);
+        }
+        String nameKey = nameBlock(a.name(), a.pincode());
+        if (nameKey != null && nameKey.equals(nameBlock(b.name(), b.pincode()))) {
+            reasons.add(NAME_PINCODE);
+        }
+        return reasons;
+    }
+
+    public static double jaroWinkler(String s1, String s2) {
+        if (s1.equals(s2)) {
+            return 1.0;
+        }
+        int len1 = s1.length();
+        int len2 = s2.length();
+        if (len1 == 0 || len2 == 0) {
+            return 0.0;
+        }
+
+        int window = Math.max(0, Math.max(len1, len2) / 2 - 1);
+        boolean[] matched1 = new boolean[len1];
+        boolean[] matched2 = new boolean[len2];
+        int matches = 0;
+        for (int i = 0; i < len1; i++) {
+            int start = Math.max(0, i - window);
+            int end = Math.min(len2 - 1, i + window);
+            for (int j = start; j <= end; j++) {
+                if (!matched2[j] && s1.charAt(i) == s2.charAt(j)) {
+                    matched1[i] = true;
+                    matched2[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        int k = 0;
+        for (int i = 0; i < len1; i++) {
+            if (matched1[i]) {
+                while (!matched2[k]) {
+                    k++;
+                }
+                if (s1.charAt(i) != s2.charAt(k)) {
+                    transpositions++;
+                }
+                k++;
+            }
+        }
+
+        double m = matches;
+        double jaro = (m / len1 + m / len2 + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        int maxPrefix = Math.min(4, Math.min(len1, len2));
+        while (prefix < maxPrefix && s1.charAt(prefix) == s2.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    private static boolean conflicting(String first, String second) {
+        return first != null && second != null && !first.equals(second);
+    }
+
+    // First names agree when they are identical, one is the initial of the other, or (if fuzzy) near-identical
+    static boolean firstNamesAgree(String name1, String name2, boolean fuzzy) {
+        if (name1 == null || name2 == null) {
+            return false;
+        }
+        String first1 = name1.substring(0, name1.indexOf(' '));
+        String first2 = name2.substring(0, name2.indexOf(' '));
+        if (first1.isEmpty() || first2.isEmpty() || first1.charAt(0) != first2.charAt(0)) {
+            return false;
+        }
+        if (first1.length() == 1 || first2.length() == 1 || first1.equals(first2)) {
+            return true;
+        }
+        return fuzzy && jaroWinkler(first1, first2) >= FIRST_NAME_AGREEMENT;
+    }
+
+    private static String lettersOnly(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetter(c)) {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+}
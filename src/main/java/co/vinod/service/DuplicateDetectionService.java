@@ -0,0 +1,428 @@
+package co.vinod.service;
+
+import co.vinod.entity.Contact;
+import co.vinod.entity.DuplicateGroup;
+import co.vinod.entity.DuplicateReport;
+import co.vinod.repository.ContactRepository;
+import co.vinod.service.ContactSimilarity.BlockKey;
+import co.vinod.service.ContactSimilarity.Fingerprint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds likely duplicate contacts without comparing every pair.
+ * <p>
+ * Contacts are grouped into blocks by normalized email, normalized phone and name+pincode
+ * (see {@link ContactSimilarity}); only contacts sharing a block are scored against each other.
+ * The blocking index is rebuilt by a background scan and kept current on every write, including writes
+ * made while a scan is running, so the
+ * same index also answers the optional duplicate check on the create path with a few hash lookups.
+ */
+@Service
+public class DuplicateDetectionService implements SmartInitializingSingleton {
+
+    public enum CreateCheck { OFF, FLAG, REJECT }
+
+    public record Match(String contactId, double score) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetectionService.class);
+
+    // Blocks per fork-join leaf; most blocks hold two or three contacts
+    private static final int BLOCKS_PER_TASK = 512;
+
+    // Groups per report page; each page loads its contacts in one query
+    static final int MAX_REPORT_LIMIT = 100;
+
+    private final ContactRepository repository;
+    private final double threshold;
+    private final int maxBlockSize;
+    private final int batchSize;
+    private final long intervalMs;
+    private final CreateCheck createCheck;
+    private final ForkJoinPool pool;
+    // Runs on-demand scans, so the blocking JDBC load never occupies a comparison worker
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "duplicate-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean scanning = new AtomicBoolean();
+
+    private volatile BlockingIndex index;
+    // Non-null while a scan is rebuilding the index, so concurrent writes land in both copies
+    private volatile BlockingIndex rebuilding;
+    private volatile ScanResult lastScan;
+
+    @Autowired
+    public DuplicateDetectionService(
+            ContactRepository repository,
+            @Value("${contacts.dedupe.threshold:0.85}") double threshold,
+            @Value("${contacts.dedupe.max-block-size:500}") int maxBlockSize,
+            @Value("${contacts.dedupe.batch-size:5000}") int batchSize,
+            @Value("${contacts.dedupe.parallelism:0}") int parallelism,
+            @Value("${contacts.dedupe.interval-ms:3600000}") long intervalMs,
+            @Value("${contacts.dedupe.create-check:off}") String createCheck
+    ) {
+        this.repository = repository;
+        this.threshold = threshold;
+        this.maxBlockSize = maxBlockSize;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.createCheck = CreateCheck.valueOf(createCheck.trim().toUpperCase(Locale.ROOT));
+        this.index = new BlockingIndex(maxBlockSize);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // With the create check enabled, build the index before the web server accepts requests,
+    // otherwise the check would pass everything until the first scheduled scan finishes
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (createCheck != CreateCheck.OFF) {
+            scheduledScan();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    public CreateCheck getCreateCheck() {
+        return createCheck;
+    }
+
+    // Index maintenance, called by ContactService on every write.
+    // rebuilding is read before index: scan() publishes the fresh index before clearing rebuilding, so a write
+    // that sees no rebuild either lands in the fresh index or committed before the scan reads its row.
+    public void index(Contact contact) {
+        Fingerprint fingerprint = ContactSimilarity.fingerprint(contact);
+        BlockingIndex next = rebuilding;
+        BlockingIndex current = index;
+        if (current != next) {
+            current.put(fingerprint);
+        }
+        if (next != null) {
+            next.putWritten(fingerprint);
+        }
+    }
+
+    public void remove(String id) {
+        BlockingIndex next = rebuilding;
+        BlockingIndex current = index;
+        if (current != next) {
+            current.remove(id);
+        }
+        if (next != null) {
+            next.removeWritten(id);
+        }
+    }
+
+    // Looks up the contact's blocks in the live index and returns the best match above the threshold.
+    // Candidates are re-read from the database before being reported, since an index entry can be stale
+    // when a write raced with the last scan.
+    public Optional<Match> findLikelyDuplicate(Contact contact) {
+        BlockingIndex current = index;
+        Fingerprint probe = ContactSimilarity.fingerprint(contact);
+        Map<String, Double> candidates = new HashMap<>();
+        for (BlockKey key : probe.blockingKeys()) {
+            String[] ids = current.block(key);
+            if (ids == null) {
+                continue;
+            }
+            for (String id : ids) {
+                Fingerprint candidate = current.get(id);
+                if (candidate == null || id.equals(probe.id()) || candidates.containsKey(id)) {
+                    continue;
+                }
+                candidates.put(id, ContactSimilarity.score(probe, candidate));
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = candidates.entrySet().stream()
+                .filter(candidate -> candidate.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .toList();
+        for (Map.Entry<String, Double> candidate : ranked) {
+            Optional<Contact> stored = repository.findById(candidate.getKey());
+            if (stored.isEmpty()) {
+                remove(candidate.getKey());
+                continue;
+            }
+            index(stored.get());
+            double score = ContactSimilarity.score(probe, ContactSimilarity.fingerprint(stored.get()));
+            if (score >= threshold) {
+                return Optional.of(new Match(candidate.getKey(), score));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Scheduled(
+            initialDelayString = "${contacts.dedupe.initial-delay-ms:10000}",
+            fixedDelayString = "${contacts.dedupe.interval-ms:3600000}"
+    )
+    public void scheduledScan() {
+        // Skips the first scheduled run when the startup build or an on-demand scan has just finished
+        ScanResult result = lastScan;
+        if (result != null && System.currentTimeMillis() - result.generatedAt().getTime() < intervalMs / 2) {
+            return;
+        }
+        if (scanning.compareAndSet(false, true)) {
+            try {
+                scan();
+            } finally {
+                scanning.set(false);
+            }
+        }
+    }
+
+    // Starts a scan in the background; returns false if one is already running
+    public boolean startScan() {
+        if (!scanning.compareAndSet(false, true)) {
+            return false;
+        }
+        CompletableFuture.runAsync(this::scan, scanExecutor)
+                .whenComplete((result, error) -> {
+                    scanning.set(false);
+                    if (error != null) {
+                        log.error("Duplicate scan failed", error);
+                    }
+                });
+        return true;
+    }
+
+    public DuplicateReport getReport(int page, int limit) {
+        page = Math.max(page, 1);
+        limit = Math.min(Math.max(limit, 1), MAX_REPORT_LIMIT);
+
+        DuplicateReport report = new DuplicateReport();
+        report.setScanInProgress(scanning.get());
+        report.setPage(page);
+        report.setLimit(limit);
+
+        ScanResult result = lastScan;
+        if (result == null) {
+            return report;
+        }
+        report.setGeneratedAt(result.generatedAt());
+        report.setScannedContacts(result.scannedContacts());
+        report.setSkippedBlocks(result.skippedBlocks());
+        report.setTotalGroups(result.clusters().size());
+
+        int total = result.clusters().size();
+        int from = (int) Math.min((long) (page - 1) * limit, total);
+        int to = Math.min(from + limit, total);
+        List<Cluster> clusters = result.clusters().subList(from, to);
+
+        List<String> ids = clusters.stream().flatMap(cluster -> cluster.ids().stream()).toList();
+        Map<String, Contact> contacts = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Contact::getId, Function.identity()));
+
+        for (Cluster cluster : clusters) {
+            // Contacts deleted or merged since the scan simply drop out of their group
+            List<Contact> members = cluster.ids().stream()
+                    .map(contacts::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (members.size() > 1) {
+                report.getGroups().add(new DuplicateGroup(cluster.score(), cluster.matchedOn(), members));
+            }
+        }
+        return report;
+    }
+
+    private void scan() {
+        long started = System.currentTimeMillis();
+        BlockingIndex fresh = new BlockingIndex(maxBlockSize);
+        rebuilding = fresh;
+        long scanned = 0;
+        try {
+            String lastId = "";
+            Slice<Contact> slice;
+            do {
+                slice = repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+                for (Contact contact : slice) {
+                    fresh.putScanned(ContactSimilarity.fingerprint(contact));
+                    lastId = contact.getId();
+                    scanned++;
+                }
+            } while (slice.hasNext());
+            index = fresh;
+        } finally {
+            rebuilding = null;
+            fresh.finishRebuild();
+        }
+
+        // Oversized blocks (e.g. a shared company switchboard number) are never scored, they would be quadratic
+        int skipped = fresh.oversizedCount();
+        List<Block> blocks = new ArrayList<>();
+        fresh.forEachBlock((key, ids) -> {
+            if (ids.length > 1) {
+                blocks.add(new Block(key, ids));
+            }
+        });
+
+        List<Pair> pairs = pool.invoke(new BlockComparisonTask(blocks, 0, blocks.size(), fresh, threshold));
+        List<Cluster> clusters = cluster(pairs);
+        lastScan = new ScanResult(new Date(), scanned, skipped, clusters);
+
+        log.info("Duplicate scan finished: {} contacts, {} candidate blocks, {} skipped blocks, {} groups in {} ms",
+                scanned, blocks.size(), skipped, clusters.size(), System.currentTimeMillis() - started);
+    }
+
+    // Union-find over matching pairs, so A~B and B~C end up in one group
+    static List<Cluster> cluster(List<Pair> pairs) {
+        Map<String, String> parent = new HashMap<>();
+        for (Pair pair : pairs) {
+            String rootA = find(parent, pair.a());
+            String rootB = find(parent, pair.b());
+            if (!rootA.equals(rootB)) {
+                parent.put(rootA, rootB);
+            }
+        }
+
+        Map<String, Set<String>> members = new HashMap<>();
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Set<String>> reasons = new HashMap<>();
+        for (Pair pair : pairs) {
+            String root = find(parent, pair.a());
+            Set<String> ids = members.computeIfAbsent(root, key -> new TreeSet<>());
+            ids.add(pair.a());
+            ids.add(pair.b());
+            scores.merge(root, pair.score(), Math::max);
+            reasons.computeIfAbsent(root, key -> new LinkedHashSet<>()).addAll(pair.matchedOn());
+        }
+
+        List<Cluster> clusters = new ArrayList<>(members.size());
+        members.forEach((root, ids) ->
+                clusters.add(new Cluster(new ArrayList<>(ids), scores.get(root), new ArrayList<>(reasons.get(root)))));
+        clusters.sort(Comparator.comparingDouble(Cluster::score).reversed()
+                .thenComparing(cluster -> cluster.ids().get(0)));
+        return clusters;
+    }
+
+    private static String find(Map<String, String> parent, String id) {
+        String root = id;
+        String next;
+        while ((next = parent.get(root)) != null) {
+            root = next;
+        }
+        // Path compression
+        String current = id;
+        while (!current.equals(root)) {
+            next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    record Pair(String a, String b, double score, List<String> matchedOn) {
+    }
+
+    record Block(BlockKey key, String[] ids) {
+    }
+
+    record Cluster(List<String> ids, double score, List<String> matchedOn) {
+    }
+
+    private record ScanResult(Date generatedAt, long scannedContacts, int skippedBlocks, List<Cluster> clusters) {
+    }
+
+    // Scores all pairs within each block, splitting the block list across the fork-join pool
+    static final class BlockComparisonTask extends RecursiveTask<List<Pair>> {
+
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final BlockingIndex index;
+        private final double threshold;
+
+        BlockComparisonTask(List<Block> blocks, int from, int to, BlockingIndex index, double threshold) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.index = index;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<Pair> compute() {
+            if (to - from > BLOCKS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                BlockComparisonTask left = new BlockComparisonTask(blocks, from, middle, index, threshold);
+                left.fork();
+                List<Pair> right = new BlockComparisonTask(blocks, middle, to, index, threshold).compute();
+                List<Pair> result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            List<Pair> pairs = new ArrayList<>();
+            for (int b = from; b < to; b++) {
+                Block block = blocks.get(b);
+                String[] ids = block.ids();
+                for (int i = 0; i < ids.length; i++) {
+                    Fingerprint first = index.get(ids[i]);
+                    if (first == null) {
+                        continue;
+                    }
+                    List<BlockKey> firstKeys = first.blockingKeys();
+                    for (int j = i + 1; j < ids.length; j++) {
+                        Fingerprint second = index.get(ids[j]);
+                        if (second == null || !ownsPair(block.key(), firstKeys, second)) {
+                            continue;
+                        }
+                        double score = ContactSimilarity.score(first, second);
+                        if (score >= threshold) {
+                            pairs.add(new Pair(first.id(), second.id(), score, ContactSimilarity.matchedOn(first, second)));
+                        }
+                    }
+                }
+            }
+            return pairs;
+        }
+
+        // A pair sharing several blocks is scored only in the first shared block that is compared at all
+        private boolean ownsPair(BlockKey key, List<BlockKey> firstKeys, Fingerprint second) {
+            List<BlockKey> secondKeys = second.blockingKeys();
+            for (BlockKey candidate : firstKeys) {
+                if (secondKeys.contains(candidate) && !index.isOversized(candidate)) {
+                    return candidate.equals(key);
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package co.vinod.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/dedupe-flag-${random.uuid}.db",
+        "spring.jpa.show-sql=false",
+        "contacts.dedupe.create-check=flag",
+        "contacts.dedupe.initial-delay-ms=3600000"
+})
+@AutoConfigureMockMvc
+class DuplicateEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void mergeFillsBlankFieldsAndDeletesDuplicates() throws Exception {
+        String email = uniqueEmail();
+        String survivorId = create("Alice", "Walker", email, null, "30301");
+        String duplicateId = create("Alice", "Walker", email, "404-555-0101", "30301");
+
+        mockMvc.perform(post("/api/contacts/{id}/merge", survivorId).param("duplicateIds", duplicateId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(survivorId))
+                .andExpect(jsonPath("$.phone").value("404-555-0101"));
+
+        mockMvc.perform(get("/api/contacts/{id}", duplicateId))
+                .andExpect(status().isNotFound());
+
+        // The index now points at the survivor only
+        mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json("Alice", "Walker", email, null, "30301")))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-Duplicate-Of", survivorId));
+    }
+
+    @Test
+    void mergeWithUnknownDuplicateIdReturnsNotFoundAndChangesNothing() throws Exception {
+        String email = uniqueEmail();
+        String survivorId = create("Bob", "Stone", email, null, "60601");
+        String duplicateId = create("Bob", "Stone", email, "312-555-0199", "60601");
+
+        mockMvc.perform(post("/api/contacts/{id}/merge", survivorId).param("duplicateIds", duplicateId, "missing-id"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Contacts with IDs missing-id not found"));
+
+        mockMvc.perform(get("/api/contacts/{id}", duplicateId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/contacts/{id}", survivorId))
+                .andExpect(jsonPath("$.phone").doesNotExist());
+    }
+
+    @Test
+    void mergeIntoUnknownContactReturnsNotFound() throws Exception {
+        mockMvc.perform(post("/api/contacts/{id}/merge", "missing-id").param("duplicateIds", "other-missing-id"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Contacts with IDs missing-id, other-missing-id not found"));
+    }
+
+    @Test
+    void createFlagsLikelyDuplicate() throws Exception {
+        String email = uniqueEmail();
+        String existingId = create("Carol", "King", email, null, "10001");
+
+        mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json("Carole", "King", email.toUpperCase(), null, "10001")))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-Duplicate-Of", existingId));
+
+        mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json("Dave", "Brown", uniqueEmail(), null, "10001")))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("X-Duplicate-Of"));
+    }
+
+    @Test
+    void duplicateReportListsGroupsFromScan() throws Exception {
+        String email = uniqueEmail();
+        String firstId = create("Erin", "Hale", email, null, "73301");
+        String secondId = create("Erin", "Hale", email, "512-555-0123", "73301");
+
+        mockMvc.perform(post("/api/contacts/duplicates/scan"))
+                .andExpect(status().isAccepted());
+        for (int i = 0; i < 100 && isScanInProgress(); i++) {
+            Thread.sleep(50);
+        }
+
+        String report = mockMvc.perform(get("/api/contacts/duplicates").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scanInProgress").value(false))
+                .andExpect(jsonPath("$.generatedAt").exists())
+                .andReturn().getResponse().getContentAsString();
+        int groupCount = JsonPath.read(report, "$.groups.length()");
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(JsonPath.read(report, "$.groups[" + i + "].contacts[*].id"));
+        }
+        assertThat(groups).contains(Stream.of(firstId, secondId).sorted().toList());
+    }
+
+    private boolean isScanInProgress() throws Exception {
+        String report = mockMvc.perform(get("/api/contacts/duplicates"))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(report, "$.scanInProgress");
+    }
+
+    private String create(String firstname, String lastname, String email, String phone, String pincode)
+            throws Exception {
+        String response = mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(firstname, lastname, email, phone, pincode)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+
+    private static String json(String firstname, String lastname, String email, String phone, String pincode) {
+        return """
+                {"firstname": "%s", "lastname": "%s", "email": %s, "phone": %s, "pincode": "%s"}
+                """.formatted(firstname, lastname, quoted(email), quoted(phone), pincode);
+    }
+
+    private static String quoted(String value) {
+        return value == null ? "null" : "\"" + value + "\"";
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
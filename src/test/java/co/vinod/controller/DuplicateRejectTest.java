@@ -0,0 +1,48 @@
+package co.vinod.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/dedupe-reject-${random.uuid}.db",
+        "spring.jpa.show-sql=false",
+        "contacts.dedupe.create-check=reject",
+        "contacts.dedupe.initial-delay-ms=3600000"
+})
+@AutoConfigureMockMvc
+class DuplicateRejectTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rejectsLikelyDuplicateOfSampleContact() throws Exception {
+        // DataLoader's sample contact is indexed before the first request
+        mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstname": "Jon", "lastname": "Doe", "email": "John.Doe@example.com", "pincode": "10001"}
+                                """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(startsWith("Contact looks like a duplicate of contact with ID ")));
+    }
+
+    @Test
+    void acceptsHouseholdMemberSharingPhone() throws Exception {
+        mockMvc.perform(post("/api/contacts").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstname": "Jane", "lastname": "Doe", "phone": "555-123-4567", "pincode": "10001"}
+                                """))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("X-Duplicate-Of"));
+    }
+}
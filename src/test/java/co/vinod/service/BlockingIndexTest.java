@@ -0,0 +1,119 @@
+package co.vinod.service;
+
+import co.vinod.service.ContactSimilarity.BlockKey;
+import co.vinod.service.ContactSimilarity.BlockKind;
+import co.vinod.service.ContactSimilarity.Fingerprint;
+import org.junit.jupiter.api.Test;
+
+import static co.vinod.service.ContactSimilarityTest.contact;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingIndexTest {
+
+    private static final BlockKey PHONE_KEY = new BlockKey(BlockKind.PHONE, "5551234567");
+    private static final BlockKey NAME_KEY = new BlockKey(BlockKind.NAME_PINCODE, "jdoe|10001");
+
+    @Test
+    void indexesContactUnderEveryBlockingKey() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.put(fingerprint("1", "john@example.com", "555-123-4567"));
+        index.put(fingerprint("2", "john@example.com", null));
+
+        assertThat(index.get("1")).isNotNull();
+        assertThat(index.block(emailKey("john@example.com"))).containsExactly("1", "2");
+        assertThat(index.block(PHONE_KEY)).containsExactly("1");
+        assertThat(index.block(NAME_KEY)).containsExactly("1", "2");
+    }
+
+    @Test
+    void reindexingSameContactDoesNotDuplicateIds() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.put(fingerprint("1", "john@example.com", "555-123-4567"));
+        index.put(fingerprint("1", "john@example.com", "555-123-4567"));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.block(PHONE_KEY)).containsExactly("1");
+    }
+
+    @Test
+    void updateMovesContactToNewBlocks() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.put(fingerprint("1", "john@example.com", "555-123-4567"));
+        index.put(fingerprint("1", "john.doe@example.com", "555-123-4567"));
+
+        assertThat(index.block(emailKey("john@example.com"))).isNull();
+        assertThat(index.block(emailKey("john.doe@example.com"))).containsExactly("1");
+        assertThat(index.block(PHONE_KEY)).containsExactly("1");
+    }
+
+    @Test
+    void removeUnlinksContactAndDropsEmptyBlocks() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.put(fingerprint("1", "john@example.com", "555-123-4567"));
+        index.put(fingerprint("2", null, "555-123-4567"));
+        index.remove("1");
+
+        assertThat(index.get("1")).isNull();
+        assertThat(index.block(emailKey("john@example.com"))).isNull();
+        assertThat(index.block(PHONE_KEY)).containsExactly("2");
+    }
+
+    @Test
+    void oversizedBlockStaysOversizedAfterRemovals() {
+        BlockingIndex index = new BlockingIndex(3);
+        for (int i = 0; i < 5; i++) {
+            index.put(fingerprint(String.valueOf(i), null, "555-123-4567"));
+        }
+
+        assertThat(index.isOversized(PHONE_KEY)).isTrue();
+        assertThat(index.block(PHONE_KEY)).isNull();
+
+        index.remove("0");
+        index.remove("1");
+        index.put(fingerprint("2", "john@example.com", "555-999-0000"));
+        index.put(fingerprint("5", null, "555-123-4567"));
+
+        assertThat(index.isOversized(PHONE_KEY)).isTrue();
+        assertThat(index.block(PHONE_KEY)).isNull();
+        // The shared name+pincode block overflowed too
+        assertThat(index.isOversized(NAME_KEY)).isTrue();
+        assertThat(index.oversizedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void scannedRowDoesNotOverwriteConcurrentUpdate() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.putWritten(fingerprint("1", "john.doe@example.com", null));
+        index.putScanned(fingerprint("1", "john@example.com", null));
+
+        assertThat(index.get("1").email()).isEqualTo("john.doe@example.com");
+        assertThat(index.block(emailKey("john@example.com"))).isNull();
+    }
+
+    @Test
+    void scannedRowDoesNotResurrectConcurrentDelete() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.removeWritten("1");
+        index.putScanned(fingerprint("1", "john@example.com", null));
+
+        assertThat(index.get("1")).isNull();
+        assertThat(index.block(emailKey("john@example.com"))).isNull();
+    }
+
+    @Test
+    void scannedRowIsIndexedWhenUntouched() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.putWritten(fingerprint("2", "jane@example.com", null));
+        index.putScanned(fingerprint("1", "john@example.com", null));
+
+        assertThat(index.block(emailKey("john@example.com"))).containsExactly("1");
+    }
+
+    private static BlockKey emailKey(String email) {
+        return new BlockKey(BlockKind.EMAIL, email);
+    }
+
+    private static Fingerprint fingerprint(String id, String email, String phone) {
+        return ContactSimilarity.fingerprint(contact(id, "John", "Doe", email, phone, "10001"));
+    }
+}
@@ -0,0 +1,189 @@
+package co.vinod.service;
+
+import co.vinod.entity.Contact;
+import co.vinod.service.ContactSimilarity.BlockKey;
+import co.vinod.service.ContactSimilarity.BlockKind;
+import co.vinod.service.ContactSimilarity.Fingerprint;
+import org.junit.jupiter.api.Test;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ContactSimilarityTest {
+
+    private static final double THRESHOLD = 0.85;
+
+    @Test
+    void normalizesEmail() {
+        assertThat(ContactSimilarity.normalizeEmail("  John.Doe+News@Example.COM ")).isEqualTo("john.doe@example.com");
+        assertThat(ContactSimilarity.normalizeEmail("john@example.com")).isEqualTo("john@example.com");
+        assertThat(ContactSimilarity.normalizeEmail("+tag@example.com")).isEqualTo("+tag@example.com");
+        assertThat(ContactSimilarity.normalizeEmail("@example.com")).isNull();
+        assertThat(ContactSimilarity.normalizeEmail("john@")).isNull();
+        assertThat(ContactSimilarity.normalizeEmail("not-an-email")).isNull();
+        assertThat(ContactSimilarity.normalizeEmail(null)).isNull();
+    }
+
+    @Test
+    void normalizesPhone() {
+        assertThat(ContactSimilarity.normalizePhone("(555) 123-4567")).isEqualTo("5551234567");
+        assertThat(ContactSimilarity.normalizePhone("+1 555-123-4567")).isEqualTo("5551234567");
+        assertThat(ContactSimilarity.normalizePhone("+91 98765 43210")).isEqualTo("9876543210");
+        assertThat(ContactSimilarity.normalizePhone("123-4567")).isEqualTo("1234567");
+        assertThat(ContactSimilarity.normalizePhone("12345")).isNull();
+        assertThat(ContactSimilarity.normalizePhone("n/a")).isNull();
+        assertThat(ContactSimilarity.normalizePhone(null)).isNull();
+    }
+
+    @Test
+    void normalizesNameAndPincode() {
+        assertThat(ContactSimilarity.normalizeName(" O'Brien ", "Smith-Jones")).isEqualTo("obrien smithjones");
+        assertThat(ContactSimilarity.normalizeName(null, "Doe")).isEqualTo(" doe");
+        assertThat(ContactSimilarity.normalizeName(" ", null)).isNull();
+        assertThat(ContactSimilarity.normalizePincode(" sw1a 1aa ")).isEqualTo("SW1A1AA");
+        assertThat(ContactSimilarity.normalizePincode("  ")).isNull();
+    }
+
+    @Test
+    void buildsNameBlockFromInitialLastNameAndPincode() {
+        assertThat(ContactSimilarity.nameBlock("john doe", "10001")).isEqualTo("jdoe|10001");
+        assertThat(ContactSimilarity.nameBlock("jon doe", "10001")).isEqualTo("jdoe|10001");
+        assertThat(ContactSimilarity.nameBlock(" doe", "10001")).isNull();
+        assertThat(ContactSimilarity.nameBlock("john ", "10001")).isNull();
+        assertThat(ContactSimilarity.nameBlock("john doe", null)).isNull();
+    }
+
+    @Test
+    void blockingKeysSkipMissingValues() {
+        Fingerprint full = ContactSimilarity.fingerprint(
+                contact("1", "John", "Doe", "john@example.com", "555-123-4567", "10001"));
+        Fingerprint nameOnly = ContactSimilarity.fingerprint(contact("2", "John", "Doe", null, null, null));
+
+        assertThat(full.blockingKeys()).containsExactly(
+                new BlockKey(BlockKind.EMAIL, "john@example.com"),
+                new BlockKey(BlockKind.PHONE, "5551234567"),
+                new BlockKey(BlockKind.NAME_PINCODE, "jdoe|10001"));
+        assertThat(nameOnly.blockingKeys()).isEmpty();
+    }
+
+    @Test
+    void computesKnownJaroWinklerValues() {
+        assertThat(ContactSimilarity.jaroWinkler("martha", "marhta")).isCloseTo(0.9611, within(0.0001));
+        assertThat(ContactSimilarity.jaroWinkler("dwayne", "duane")).isCloseTo(0.84, within(0.0001));
+        assertThat(ContactSimilarity.jaroWinkler("dixon", "dicksonx")).isCloseTo(0.8133, within(0.0001));
+        assertThat(ContactSimilarity.jaroWinkler("same", "same")).isEqualTo(1.0);
+        assertThat(ContactSimilarity.jaroWinkler("abc", "xyz")).isEqualTo(0.0);
+        assertThat(ContactSimilarity.jaroWinkler("", "abc")).isEqualTo(0.0);
+    }
+
+    @Test
+    void householdMembersSharingPhoneAreNotDuplicates() {
+        Fingerprint john = fingerprint("1", "John", "Doe", "john@example.com", "555-123-4567", "10001");
+        Fingerprint jane = fingerprint("2", "Jane", "Doe", "jane@example.com", "555-123-4567", "10001");
+
+        assertThat(ContactSimilarity.score(john, jane)).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void householdMembersSharingPhoneWithoutEmailsAreNotDuplicates() {
+        Fingerprint john = fingerprint("1", "John", "Doe", null, "555-123-4567", "10001");
+        Fingerprint jane = fingerprint("2", "Jane", "Doe", null, "555-123-4567", "10001");
+
+        assertThat(ContactSimilarity.score(john, jane)).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void householdMembersWithSimilarFirstNamesSharingPhoneAreNotDuplicates() {
+        Fingerprint mary = fingerprint("1", "Mary", "Doe", null, "555-123-4567", "10001");
+        Fingerprint mark = fingerprint("2", "Mark", "Doe", null, "555-123-4567", "10001");
+        Fingerprint dan = fingerprint("3", "Dan", "Doe", null, "555-123-4567", "10001");
+        Fingerprint dana = fingerprint("4", "Dana", "Doe", null, "555-123-4567", "10001");
+
+        assertThat(ContactSimilarity.jaroWinkler("mary", "mark")).isGreaterThan(0.88);
+        assertThat(ContactSimilarity.score(mary, mark)).isLessThan(THRESHOLD);
+        assertThat(ContactSimilarity.score(dan, dana)).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void samePersonSharingOnlyPhoneIsDuplicate() {
+        Fingerprint first = fingerprint("1", "Mary", "Doe", null, "555-123-4567", "10001");
+        Fingerprint second = fingerprint("2", "M", "Doe", null, "(555) 123-4567", null);
+
+        assertThat(ContactSimilarity.score(first, second)).isGreaterThanOrEqualTo(THRESHOLD);
+    }
+
+    @Test
+    void sameNameInSamePincodeWithDifferentContactDetailsIsNotDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Smith", "john.smith@example.com", "555-111-2222", "10001");
+        Fingerprint second = fingerprint("2", "John", "Smith", "jsmith@example.org", "555-333-4444", "10001");
+
+        assertThat(ContactSimilarity.score(first, second)).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void sameNameInSamePincodeWithOneConflictingChannelIsNotDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Smith", "john.smith@example.com", null, "10001");
+        Fingerprint second = fingerprint("2", "John", "Smith", "jsmith@example.org", null, "10001");
+
+        assertThat(ContactSimilarity.score(first, second)).isLessThan(THRESHOLD);
+    }
+
+    @Test
+    void sameEmailAndSimilarNameIsDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Doe", "John.Doe+work@example.com", "555-123-4567", "10001");
+        Fingerprint second = fingerprint("2", "Jon", "Doe", "john.doe@example.com", "+1 (555) 123 4567", "10001");
+
+        assertThat(ContactSimilarity.score(first, second)).isGreaterThanOrEqualTo(THRESHOLD);
+        assertThat(ContactSimilarity.matchedOn(first, second))
+                .containsExactly(ContactSimilarity.EMAIL, ContactSimilarity.PHONE, ContactSimilarity.NAME_PINCODE);
+    }
+
+    @Test
+    void samePersonWithChangedPhoneIsDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Doe", "john.doe@example.com", "555-123-4567", "10001");
+        Fingerprint second = fingerprint("2", "John", "Doe", "john.doe@example.com", "555-999-0000", "10001");
+
+        assertThat(ContactSimilarity.score(first, second)).isGreaterThanOrEqualTo(THRESHOLD);
+    }
+
+    @Test
+    void initialMatchesFullFirstName() {
+        Fingerprint first = fingerprint("1", "J", "Doe", "john.doe@example.com", null, null);
+        Fingerprint second = fingerprint("2", "John", "Doe", "john.doe@example.com", null, null);
+
+        assertThat(ContactSimilarity.score(first, second)).isGreaterThanOrEqualTo(THRESHOLD);
+    }
+
+    @Test
+    void nearIdenticalNameInSamePincodeWithoutContactDetailsIsDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Doe", null, null, "10001");
+        Fingerprint second = fingerprint("2", "Jon", "Doe", null, null, "10001");
+
+        assertThat(ContactSimilarity.score(first, second)).isGreaterThanOrEqualTo(THRESHOLD);
+    }
+
+    @Test
+    void sameNameInDifferentPincodeIsNotDuplicate() {
+        Fingerprint first = fingerprint("1", "John", "Doe", null, null, "10001");
+        Fingerprint second = fingerprint("2", "John", "Doe", null, null, "94107");
+
+        assertThat(ContactSimilarity.score(first, second)).isLessThan(THRESHOLD);
+    }
+
+    static Contact contact(String id, String firstname, String lastname, String email, String phone, String pincode) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setFirstname(firstname);
+        contact.setLastname(lastname);
+        contact.setEmail(email);
+        contact.setPhone(phone);
+        contact.setPincode(pincode);
+        return contact;
+    }
+
+    private static Fingerprint fingerprint(String id, String firstname, String lastname,
+                                           String email, String phone, String pincode) {
+        return ContactSimilarity.fingerprint(contact(id, firstname, lastname, email, phone, pincode));
+    }
+}
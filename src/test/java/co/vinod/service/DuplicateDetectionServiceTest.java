@@ -0,0 +1,236 @@
+package co.vinod.service;
+
+import co.vinod.entity.Contact;
+import co.vinod.entity.DuplicateReport;
+import co.vinod.repository.ContactRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static co.vinod.service.ContactSimilarityTest.contact;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DuplicateDetectionServiceTest {
+
+    private final ContactRepository repository = mock(ContactRepository.class);
+    private final DuplicateDetectionService service = new DuplicateDetectionService(repository, 0.85, 500, 2, 2, 3_600_000, "off");
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void failedScanReleasesScanLock() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyString(), any()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThat(service.startScan()).isTrue();
+
+        awaitScan();
+        assertThat(service.getReport(1, 10).getGeneratedAt()).isNull();
+        assertThat(service.startScan()).isTrue();
+    }
+
+    @Test
+    void reportPagingClampsLargeAndInvalidValues() {
+        givenContacts(
+                contact("1", "John", "Doe", "john@example.com", null, "10001"),
+                contact("2", "John", "Doe", "john@example.com", null, "10001"));
+        service.scheduledScan();
+
+        DuplicateReport farPage = service.getReport(1_000_000, 10_000);
+        assertThat(farPage.getGroups()).isEmpty();
+        assertThat(farPage.getTotalGroups()).isEqualTo(1);
+        assertThat(farPage.getLimit()).isEqualTo(DuplicateDetectionService.MAX_REPORT_LIMIT);
+
+        DuplicateReport firstPage = service.getReport(0, 0);
+        assertThat(firstPage.getPage()).isEqualTo(1);
+        assertThat(firstPage.getLimit()).isEqualTo(1);
+        assertThat(firstPage.getGroups()).hasSize(1);
+    }
+
+    @Test
+    void likelyDuplicateIsConfirmedAgainstDatabase() {
+        Contact stored = contact("1", "John", "Doe", "john@example.com", null, "10001");
+        service.index(stored);
+        when(repository.findById("1")).thenReturn(Optional.of(stored));
+
+        Optional<DuplicateDetectionService.Match> match =
+                service.findLikelyDuplicate(contact(null, "Jon", "Doe", "John@Example.com", null, "10001"));
+
+        assertThat(match).map(DuplicateDetectionService.Match::contactId).contains("1");
+    }
+
+    @Test
+    void deletedContactLeftInIndexIsNotReportedAndIsEvicted() {
+        service.index(contact("1", "John", "Doe", "john@example.com", null, "10001"));
+        when(repository.findById("1")).thenReturn(Optional.empty());
+        Contact incoming = contact(null, "John", "Doe", "john@example.com", null, "10001");
+
+        assertThat(service.findLikelyDuplicate(incoming)).isEmpty();
+        assertThat(service.findLikelyDuplicate(incoming)).isEmpty();
+        verify(repository, times(1)).findById("1");
+    }
+
+    @Test
+    void staleIndexEntryIsRescoredWithStoredContact() {
+        service.index(contact("1", "John", "Doe", "john@example.com", null, "10001"));
+        when(repository.findById("1"))
+                .thenReturn(Optional.of(contact("1", "Jane", "Roe", "jane@example.org", null, "94107")));
+
+        assertThat(service.findLikelyDuplicate(contact(null, "John", "Doe", "john@example.com", null, "10001")))
+                .isEmpty();
+    }
+
+    @Test
+    void clusterJoinsTransitiveMatches() {
+        List<DuplicateDetectionService.Cluster> clusters = DuplicateDetectionService.cluster(List.of(
+                new DuplicateDetectionService.Pair("c", "b", 0.9, List.of(ContactSimilarity.PHONE)),
+                new DuplicateDetectionService.Pair("x", "y", 0.95, List.of(ContactSimilarity.EMAIL)),
+                new DuplicateDetectionService.Pair("a", "b", 0.87, List.of(ContactSimilarity.EMAIL)),
+                new DuplicateDetectionService.Pair("a", "c", 0.86, List.of(ContactSimilarity.NAME_PINCODE))));
+
+        assertThat(clusters).hasSize(2);
+        assertThat(clusters.get(0).ids()).containsExactly("x", "y");
+        assertThat(clusters.get(0).score()).isEqualTo(0.95);
+        assertThat(clusters.get(1).ids()).containsExactly("a", "b", "c");
+        assertThat(clusters.get(1).score()).isEqualTo(0.9);
+        assertThat(clusters.get(1).matchedOn()).containsExactlyInAnyOrder(
+                ContactSimilarity.PHONE, ContactSimilarity.EMAIL, ContactSimilarity.NAME_PINCODE);
+    }
+
+    @Test
+    void scanGroupsDuplicatesAcrossBatches() {
+        givenContacts(
+                contact("a", "John", "Doe", "john@example.com", "555-123-4567", "10001"),
+                contact("b", "Jane", "Smith", "jane@example.com", null, "94107"),
+                contact("c", "Robert", "Johnson", null, "555-567-8901", "60601"),
+                contact("d", "Jon", "Doe", "john+home@example.com", null, "10001"),
+                contact("e", "R", "Johnson", null, "+1 555 567 8901", "60601"));
+
+        service.scheduledScan();
+        DuplicateReport report = service.getReport(1, 10);
+
+        assertThat(report.getScannedContacts()).isEqualTo(5);
+        assertThat(report.getTotalGroups()).isEqualTo(2);
+        assertThat(report.getGroups())
+                .extracting(group -> group.getContacts().stream().map(Contact::getId).toList())
+                .containsExactlyInAnyOrder(List.of("a", "d"), List.of("c", "e"));
+    }
+
+    @Test
+    void scanSkipsOversizedBlocks() {
+        DuplicateDetectionService smallBlocks = new DuplicateDetectionService(repository, 0.85, 3, 2, 2, 3_600_000, "off");
+        try {
+            givenContacts(
+                    contact("1", "Ann", "Lee", null, "555-000-0000", "10001"),
+                    contact("2", "Ann", "Lee", null, "555-000-0000", "20002"),
+                    contact("3", "Ann", "Lee", null, "555-000-0000", "30003"),
+                    contact("4", "Ann", "Lee", null, "555-000-0000", "40004"));
+
+            smallBlocks.scheduledScan();
+            DuplicateReport report = smallBlocks.getReport(1, 10);
+
+            assertThat(report.getSkippedBlocks()).isEqualTo(1);
+            assertThat(report.getTotalGroups()).isZero();
+        } finally {
+            smallBlocks.shutdown();
+        }
+    }
+
+    @Test
+    void deleteDuringScanIsNotUndoneByStaleRow() {
+        Contact first = contact("a", "John", "Doe", "john@example.com", null, "10001");
+        Contact second = contact("b", "John", "Doe", "john@example.com", null, "10001");
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyString(), any())).thenAnswer(invocation -> {
+            // "b" is deleted after this slice was read but before the scan indexes it
+            service.remove("b");
+            return new SliceImpl<>(List.of(first, second), invocation.getArgument(1), false);
+        });
+
+        service.scheduledScan();
+
+        assertThat(service.getReport(1, 10).getTotalGroups()).isZero();
+    }
+
+    @Test
+    void pairSharingSeveralBlocksIsScoredOnce() {
+        BlockingIndex index = new BlockingIndex(10);
+        index.put(ContactSimilarity.fingerprint(contact("a", "John", "Doe", "john@example.com", "555-123-4567", "10001")));
+        index.put(ContactSimilarity.fingerprint(contact("b", "John", "Doe", "john@example.com", "555-123-4567", "10001")));
+
+        List<DuplicateDetectionService.Block> blocks = blocks(index);
+        List<DuplicateDetectionService.Pair> pairs = compare(index, blocks);
+
+        assertThat(blocks).hasSize(3);
+        assertThat(pairs).extracting(DuplicateDetectionService.Pair::a, DuplicateDetectionService.Pair::b)
+                .containsExactly(tuple("a", "b"));
+    }
+
+    @Test
+    void pairIsScoredInNextSharedBlockWhenFirstIsOversized() {
+        BlockingIndex index = new BlockingIndex(2);
+        index.put(ContactSimilarity.fingerprint(contact("a", "John", "Doe", "shared@example.com", "555-123-4567", "10001")));
+        index.put(ContactSimilarity.fingerprint(contact("b", "John", "Doe", "shared@example.com", "555-123-4567", "10001")));
+        index.put(ContactSimilarity.fingerprint(contact("c", "Mary", "Major", "shared@example.com", null, "94107")));
+
+        List<DuplicateDetectionService.Pair> pairs = compare(index, blocks(index));
+
+        assertThat(pairs).extracting(DuplicateDetectionService.Pair::a, DuplicateDetectionService.Pair::b)
+                .containsExactly(tuple("a", "b"));
+    }
+
+    private static List<DuplicateDetectionService.Block> blocks(BlockingIndex index) {
+        List<DuplicateDetectionService.Block> blocks = new ArrayList<>();
+        index.forEachBlock((key, ids) -> {
+            if (ids.length > 1) {
+                blocks.add(new DuplicateDetectionService.Block(key, ids));
+            }
+        });
+        return blocks;
+    }
+
+    private static List<DuplicateDetectionService.Pair> compare(BlockingIndex index,
+                                                                List<DuplicateDetectionService.Block> blocks) {
+        return new DuplicateDetectionService.BlockComparisonTask(blocks, 0, blocks.size(), index, 0.85).invoke();
+    }
+
+    // Serves the contacts through the keyset paging and lookup queries the service uses
+    private void givenContacts(Contact... contacts) {
+        List<Contact> sorted = Arrays.stream(contacts).sorted(Comparator.comparing(Contact::getId)).toList();
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyString(), any())).thenAnswer(invocation -> {
+            String lastId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            List<Contact> remaining = sorted.stream().filter(contact -> contact.getId().compareTo(lastId) > 0).toList();
+            List<Contact> page = remaining.stream().limit(pageable.getPageSize()).toList();
+            return new SliceImpl<>(page, pageable, remaining.size() > page.size());
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return sorted.stream().filter(contact -> ids.contains(contact.getId())).toList();
+        });
+    }
+
+    private void awaitScan() throws InterruptedException {
+        for (int i = 0; i < 100 && service.getReport(1, 10).isScanInProgress(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(service.getReport(1, 10).isScanInProgress()).isFalse();
+    }
+}